@@ -0,0 +1,52 @@
+#!/usr/bin/env bash
+#
+# Builds the fast-startup variant: executable jar with Spring AOT, extracted layout and a trained AppCDS archive.
+#
+# Usage: scripts/build-fast-startup.sh [output-dir]   (default: target/fast-startup)
+#
+# Run the result with:
+#   java -XX:SharedArchiveFile=<output-dir>/application.jsa -Dspring.aot.enabled=true -jar <output-dir>/BputResultExtract-0.0.1-SNAPSHOT.jar
+#
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+ARTIFACT=BputResultExtract-0.0.1-SNAPSHOT
+OUT_DIR=${1:-target/fast-startup}
+TRAINING_PORT=18081
+
+./mvnw -B -q -Pfast-startup clean package -DskipTests
+
+# CDS needs classes on the classpath as plain jars, not nested inside the fat jar
+rm -rf "$OUT_DIR"
+java -Djarmode=tools -jar "target/$ARTIFACT.jar" extract --destination "$OUT_DIR"
+
+# Training run: start the application and serve the first requests, so the archive also holds the classes
+# loaded lazily on first use. SpringDoc, for example, only builds its OpenAPI model on the first /api-docs
+# request. No BPUT calls are made. The archive is written when the JVM exits on SIGTERM.
+java -XX:ArchiveClassesAtExit="$OUT_DIR/application.jsa" \
+     -Dspring.aot.enabled=true \
+     -jar "$OUT_DIR/$ARTIFACT.jar" --server.port=$TRAINING_PORT > "$OUT_DIR/training.log" 2>&1 &
+pid=$!
+
+until curl -sf -o /dev/null "http://localhost:$TRAINING_PORT/api/results/health"; do
+    if ! kill -0 "$pid" 2>/dev/null; then
+        echo "Training run failed to start, see $OUT_DIR/training.log" >&2
+        exit 1
+    fi
+    sleep 0.1
+done
+
+curl -sf -o /dev/null "http://localhost:$TRAINING_PORT/api-docs"
+curl -sf -o /dev/null "http://localhost:$TRAINING_PORT/swagger-ui/index.html"
+curl -sf -o /dev/null "http://localhost:$TRAINING_PORT/api/results/query?grade=F"
+
+kill -TERM "$pid"
+wait "$pid" || true
+
+if [ ! -f "$OUT_DIR/application.jsa" ]; then
+    echo "AppCDS archive was not written, see $OUT_DIR/training.log" >&2
+    exit 1
+fi
+
+echo "Fast-startup build ready in $OUT_DIR"
@@ -0,0 +1,113 @@
+#!/usr/bin/env bash
+#
+# Compares cold start of the regular war build with the steps of the fast-startup build, so the effect of each
+# step can be seen on its own:
+#   war           current packaging (java -jar on the war)
+#   jar           extracted executable jar, AOT code present but not used, no CDS
+#   jar-aot       same jar with -Dspring.aot.enabled=true
+#   jar-aot-cds   same jar with AOT and the trained AppCDS archive (the full fast-startup build)
+#
+# For every run it records:
+#   ready_ms      wall time from JVM launch until /api/results/health answers
+#   started_ms    "Started BputResultExtractApplication in X seconds" as reported by Spring Boot
+#   api_docs_ms   latency of the first /api-docs request (SpringDoc builds the OpenAPI model lazily)
+#   query_ms      latency of the first /api/results/query request
+#
+# Usage: scripts/startup-benchmark.sh [runs]   (default: 5)
+# Requires: JDK 21, curl. Port 18080 must be free.
+#
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS=${1:-5}
+PORT=18080
+ARTIFACT=BputResultExtract-0.0.1-SNAPSHOT
+WORK_DIR=$(mktemp -d)
+RESULTS="$WORK_DIR/results.csv"
+trap 'rm -rf "$WORK_DIR"' EXIT
+
+now_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+request_ms() {
+    local start end
+    start=$(now_ms)
+    curl -sf -o /dev/null "http://localhost:$PORT$1"
+    end=$(now_ms)
+    echo $(( end - start ))
+}
+
+# measure <label> <run> <java args...>
+measure() {
+    local label=$1 run=$2
+    shift 2
+    local log="$WORK_DIR/$label-$run.log"
+
+    local start pid ready started api_docs query
+    start=$(now_ms)
+    java "$@" --server.port=$PORT > "$log" 2>&1 &
+    pid=$!
+
+    until curl -sf -o /dev/null "http://localhost:$PORT/api/results/health"; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "$label run $run failed to start, see log:" >&2
+            cat "$log" >&2
+            exit 1
+        fi
+        sleep 0.02
+    done
+    ready=$(( $(now_ms) - start ))
+
+    api_docs=$(request_ms "/api-docs")
+    query=$(request_ms "/api/results/query?grade=F")
+
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+
+    started=$(sed -n 's/.*Started BputResultExtractApplication in \([0-9.]*\) seconds.*/\1/p' "$log" | awk '{ printf "%d", $1 * 1000 }')
+
+    echo "$label,$run,$ready,$started,$api_docs,$query" >> "$RESULTS"
+    echo "$label run $run: ready=${ready}ms started=${started}ms api-docs=${api_docs}ms query=${query}ms"
+}
+
+echo "Building war (current packaging)..."
+./mvnw -B -q clean package -DskipTests
+cp "target/$ARTIFACT.war" "$WORK_DIR/"
+
+echo "Building fast-startup jar..."
+scripts/build-fast-startup.sh "$WORK_DIR/fast-startup"
+
+echo "label,run,ready_ms,started_ms,api_docs_ms,query_ms" > "$RESULTS"
+
+FAST_JAR="$WORK_DIR/fast-startup/$ARTIFACT.jar"
+
+for run in $(seq 1 "$RUNS"); do
+    measure war "$run" -jar "$WORK_DIR/$ARTIFACT.war"
+    measure jar "$run" -jar "$FAST_JAR"
+    measure jar-aot "$run" -Dspring.aot.enabled=true -jar "$FAST_JAR"
+    measure jar-aot-cds "$run" \
+        -XX:SharedArchiveFile="$WORK_DIR/fast-startup/application.jsa" \
+        -Dspring.aot.enabled=true \
+        -jar "$FAST_JAR"
+done
+
+echo
+echo "Averages over $RUNS runs:"
+awk -F, 'NR > 1 {
+        n[$1]++; ready[$1] += $3; started[$1] += $4; docs[$1] += $5; query[$1] += $6
+    }
+    END {
+        printf "%-14s %10s %12s %13s %10s\n", "build", "ready_ms", "started_ms", "api_docs_ms", "query_ms"
+        split("war jar jar-aot jar-aot-cds", order, " ")
+        for (i = 1; i <= 4; i++) {
+            label = order[i]
+            printf "%-14s %10d %12d %13d %10d\n", label, ready[label] / n[label], started[label] / n[label],
+                docs[label] / n[label], query[label] / n[label]
+        }
+    }' "$RESULTS"
+
+cp "$RESULTS" target/startup-benchmark.csv
+echo
+echo "Raw results: target/startup-benchmark.csv"
@@ -1,5 +1,6 @@
 package com.result.bputresultextract.config;
 
+import com.result.bputresultextract.jfr.UpstreamCallTrace;
 import io.netty.channel.ChannelOption;
 import io.netty.handler.timeout.ReadTimeoutHandler;
 import io.netty.handler.timeout.WriteTimeoutHandler;
@@ -23,7 +24,11 @@ public class WebClientConfig {
                 .responseTimeout(Duration.ofSeconds(30))
                 .doOnConnected(conn ->
                         conn.addHandlerLast(new ReadTimeoutHandler(30, TimeUnit.SECONDS))
-                                .addHandlerLast(new WriteTimeoutHandler(30, TimeUnit.SECONDS)));
+                                .addHandlerLast(new WriteTimeoutHandler(30, TimeUnit.SECONDS)))
+                // Mark the end of connection acquire for JFR tracing of upstream calls
+                .doOnRequest((request, connection) -> request.currentContextView()
+                        .<UpstreamCallTrace>getOrEmpty(UpstreamCallTrace.CONTEXT_KEY)
+                        .ifPresent(UpstreamCallTrace::connectionAcquired));
 
         return WebClient.builder()
                 .baseUrl("https://results.bput.ac.in")
@@ -0,0 +1,113 @@
+package com.result.bputresultextract.controller;
+
+import com.result.bputresultextract.service.FlightRecorderService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+@RestController
+@RequestMapping("/api/diagnostics")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Diagnostics", description = "APIs for profiling extractions with JDK Flight Recorder")
+public class DiagnosticsController {
+
+    private final FlightRecorderService flightRecorderService;
+
+    // Checked per request rather than with a bean condition, so the flag also works in the AOT-processed build
+    @Value("${bput.diagnostics.jfr.enabled:false}")
+    private boolean jfrEnabled;
+
+    @Operation(
+            summary = "Start a JFR recording",
+            description = "Starts a Flight Recorder recording of the BPUT extraction events only " +
+                    "(per (regno, session) task and per upstream call/attempt phase timings). No JDK events are recorded."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Recording started", content = @Content(mediaType = "text/plain")),
+            @ApiResponse(responseCode = "404", description = "JFR diagnostics are disabled", content = @Content(mediaType = "text/plain")),
+            @ApiResponse(responseCode = "409", description = "A recording is already running", content = @Content(mediaType = "text/plain"))
+    })
+    @PostMapping("/jfr/start")
+    public ResponseEntity<String> startRecording(
+            @Parameter(description = "How many minutes of data to keep", example = "30")
+            @RequestParam(defaultValue = "30") long maxAgeMinutes) {
+        if (!jfrEnabled) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("JFR diagnostics are disabled");
+        }
+
+        try {
+            flightRecorderService.start(Duration.ofMinutes(maxAgeMinutes));
+            return ResponseEntity.ok("Recording started");
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    @Operation(
+            summary = "Dump the JFR recording",
+            description = "Returns the data recorded so far as a .jfr file, which can be opened in JDK Mission Control " +
+                    "or inspected with 'jfr print --events com.result.bputresultextract.*'."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Recording file", content = @Content(mediaType = "application/octet-stream")),
+            @ApiResponse(responseCode = "404", description = "JFR diagnostics are disabled", content = @Content(mediaType = "text/plain")),
+            @ApiResponse(responseCode = "409", description = "No recording has been started", content = @Content(mediaType = "text/plain"))
+    })
+    @GetMapping("/jfr/dump")
+    public ResponseEntity<?> dumpRecording(
+            @Parameter(description = "Stop and discard the recording after dumping it", example = "false")
+            @RequestParam(defaultValue = "false") boolean stop) {
+        if (!jfrEnabled) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("JFR diagnostics are disabled");
+        }
+
+        try {
+            Path recording = flightRecorderService.dump(stop);
+            long length = Files.size(recording);
+
+            // Stream the file instead of loading a possibly large recording onto the heap
+            StreamingResponseBody body = outputStream -> {
+                try {
+                    Files.copy(recording, outputStream);
+                } finally {
+                    Files.deleteIfExists(recording);
+                }
+            };
+
+            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+            headers.setContentDispositionFormData("attachment", String.format("bput_extraction_%s.jfr", timestamp));
+            headers.setContentLength(length);
+
+            return ResponseEntity.ok()
+                    .headers(headers)
+                    .body(body);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (Exception e) {
+            log.error("Error dumping JFR recording", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error dumping recording: " + e.getMessage());
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.result.bputresultextract.controller;
 
 import com.result.bputresultextract.dto.CsvResultRow;
 import com.result.bputresultextract.dto.ExtractionRequest;
+import com.result.bputresultextract.dto.GradeChange;
 import com.result.bputresultextract.service.ResultExtractionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -85,17 +86,9 @@ public class ResultExtractionController {
 
         try {
             // Validate request
-            if (request.getStartRegNo() == null || request.getStartRegNo().isEmpty()) {
-                return ResponseEntity.badRequest().body("startRegNo is required");
-            }
-            if (request.getEndRegNo() == null || request.getEndRegNo().isEmpty()) {
-                return ResponseEntity.badRequest().body("endRegNo is required");
-            }
-            if (request.getDob() == null || request.getDob().isEmpty()) {
-                return ResponseEntity.badRequest().body("dob is required");
-            }
-            if (request.getStartSession() == null || request.getStartSession().isEmpty()) {
-                return ResponseEntity.badRequest().body("startSession is required");
+            String validationError = validateRequest(request);
+            if (validationError != null) {
+                return ResponseEntity.badRequest().body(validationError);
             }
 
             // Generate list of registration numbers
@@ -109,22 +102,10 @@ public class ResultExtractionController {
             // Generate CSV
             String csv = resultExtractionService.generateCsv(results);
 
-            // Create filename with timestamp
-            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-            String filename = String.format("bput_results_%s.csv", timestamp);
-
-            // Set response headers
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(new MediaType("text", "csv"));
-            headers.setContentDispositionFormData("attachment", filename);
-            headers.setCacheControl("no-cache, no-store, must-revalidate");
-            headers.setPragma("no-cache");
-            headers.setExpires(0);
-
             log.info("Extraction completed. Total records: {}", results.size());
 
             return ResponseEntity.ok()
-                    .headers(headers)
+                    .headers(csvAttachmentHeaders("bput_results"))
                     .body(csv);
 
         } catch (Exception e) {
@@ -134,6 +115,84 @@ public class ResultExtractionController {
         }
     }
 
+    @Operation(
+            summary = "Extract grade changes",
+            description = "Delta mode for nightly refreshes and recheck cycles. Re-fetches the same range as /extract " +
+                    "but returns only grades that were added, removed or changed since the previous delta run for each " +
+                    "semester. Semesters whose content is unchanged are skipped, so the output stays small. " +
+                    "(regno, session) pairs that delta mode has never checked are rejected with 409 unless seed=true."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Successfully compared results and returned the change feed as CSV",
+                    content = @Content(
+                            mediaType = "text/csv",
+                            schema = @Schema(type = "string"),
+                            examples = @ExampleObject(
+                                    value = "regdNo,semId,subjectCode,examSession,change,oldGrade,newGrade,credits,recheck\n" +
+                                            "2101289370,3,RCS3C001,Odd-(2022-23),CHANGED,F,C,3,1"
+                            )
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid request - missing required fields",
+                    content = @Content(mediaType = "text/plain")
+            ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "No delta baseline yet for some (regno, session) pairs - run once with seed=true",
+                    content = @Content(mediaType = "text/plain")
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal server error during extraction",
+                    content = @Content(mediaType = "text/plain")
+            )
+    })
+    @PostMapping(value = "/delta", produces = "text/csv")
+    public ResponseEntity<String> extractGradeChanges(
+            @Parameter(
+                    description = "Extraction request containing registration numbers, sessions, and date of birth",
+                    required = true,
+                    schema = @Schema(implementation = ExtractionRequest.class)
+            )
+            @RequestBody ExtractionRequest request,
+            @Parameter(description = "Record a baseline for (regno, session) pairs that have none instead of rejecting " +
+                    "the request. Seeded pairs report no changes on this run.", example = "false")
+            @RequestParam(defaultValue = "false") boolean seed) {
+        log.info("Received delta request from regNo {} to {}", request.getStartRegNo(), request.getEndRegNo());
+
+        try {
+            String validationError = validateRequest(request);
+            if (validationError != null) {
+                return ResponseEntity.badRequest().body(validationError);
+            }
+
+            List<String> regnos = generateRegNoList(request.getStartRegNo(), request.getEndRegNo());
+
+            List<GradeChange> changes = resultExtractionService.extractGradeChangesForRegnos(regnos, request.getDob(),
+                    request.getStartSession(), request.getEndSession(), seed);
+
+            String csv = resultExtractionService.generateChangeCsv(changes);
+
+            log.info("Delta extraction completed. Total changes: {}", changes.size());
+
+            return ResponseEntity.ok()
+                    .headers(csvAttachmentHeaders("bput_grade_changes"))
+                    .body(csv);
+
+        } catch (IllegalStateException e) {
+            log.warn("Delta request rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (Exception e) {
+            log.error("Error during delta extraction", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error extracting grade changes: " + e.getMessage());
+        }
+    }
+
     @Operation(
             summary = "Health check",
             description = "Check if the Result Extraction Service is running and healthy"
@@ -148,6 +207,43 @@ public class ResultExtractionController {
         return ResponseEntity.ok("Result Extraction Service is running");
     }
 
+    /**
+     * Returns an error message for the first missing required field, or null if the request is complete
+     */
+    private String validateRequest(ExtractionRequest request) {
+        if (request.getStartRegNo() == null || request.getStartRegNo().isEmpty()) {
+            return "startRegNo is required";
+        }
+        if (request.getEndRegNo() == null || request.getEndRegNo().isEmpty()) {
+            return "endRegNo is required";
+        }
+        if (request.getDob() == null || request.getDob().isEmpty()) {
+            return "dob is required";
+        }
+        if (request.getStartSession() == null || request.getStartSession().isEmpty()) {
+            return "startSession is required";
+        }
+        return null;
+    }
+
+    /**
+     * Headers for a CSV download named {prefix}_{timestamp}.csv
+     */
+    private HttpHeaders csvAttachmentHeaders(String filenamePrefix) {
+        // Create filename with timestamp
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+        String filename = String.format("%s_%s.csv", filenamePrefix, timestamp);
+
+        // Set response headers
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(new MediaType("text", "csv"));
+        headers.setContentDispositionFormData("attachment", filename);
+        headers.setCacheControl("no-cache, no-store, must-revalidate");
+        headers.setPragma("no-cache");
+        headers.setExpires(0);
+        return headers;
+    }
+
     /**
      * Generate a list of registration numbers from startRegNo to endRegNo (inclusive)
      * Example: generateRegNoList("2101289370", "2101289373") -> ["2101289370", "2101289371", "2101289372", "2101289373"]
@@ -0,0 +1,77 @@
+package com.result.bputresultextract.controller;
+
+import com.result.bputresultextract.dto.ResultQueryResponse;
+import com.result.bputresultextract.service.ResultStore;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/results")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Result Query", description = "APIs for querying previously extracted BPUT results")
+public class ResultQueryController {
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private final ResultStore resultStore;
+
+    @Operation(
+            summary = "Query extracted results",
+            description = "Filters result rows already collected by earlier extractions, without contacting BPUT. " +
+                    "All filters are optional and combined with AND; omitted filters match everything. " +
+                    "Results are paged and returned in storage order (roughly the order they were first extracted)."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Matching rows for the requested page",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ResultQueryResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid page or size",
+                    content = @Content(mediaType = "text/plain")
+            )
+    })
+    @GetMapping("/query")
+    public ResponseEntity<?> queryResults(
+            @Parameter(description = "Registration number", example = "2101289370")
+            @RequestParam(required = false) String regdNo,
+            @Parameter(description = "Subject code", example = "RCS3C001")
+            @RequestParam(required = false) String subjectCode,
+            @Parameter(description = "Examination session", example = "Odd-(2022-23)")
+            @RequestParam(required = false) String examSession,
+            @Parameter(description = "Grade", example = "F")
+            @RequestParam(required = false) String grade,
+            @Parameter(description = "Zero-based page number", example = "0")
+            @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page size (max " + MAX_PAGE_SIZE + ")", example = "100")
+            @RequestParam(defaultValue = "100") int size) {
+
+        if (page < 0) {
+            return ResponseEntity.badRequest().body("page must be 0 or greater");
+        }
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().body("size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        ResultQueryResponse response = resultStore.query(regdNo, subjectCode, examSession, grade, page, size);
+        log.debug("Query regdNo={}, subjectCode={}, examSession={}, grade={} matched {} rows",
+                regdNo, subjectCode, examSession, grade, response.getTotalElements());
+
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,29 @@
+package com.result.bputresultextract.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GradeChange {
+
+    public enum ChangeType {
+        ADDED,
+        REMOVED,
+        CHANGED
+    }
+
+    private String regdNo;
+    private String semId;
+    private String subjectCode;
+    private String examSession;
+    private ChangeType change;
+    private String oldGrade;
+    private String newGrade;
+    private Integer credits;
+    private Integer recheck;
+}
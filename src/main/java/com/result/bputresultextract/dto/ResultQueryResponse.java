@@ -0,0 +1,32 @@
+package com.result.bputresultextract.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "One page of previously extracted result rows matching a query")
+public class ResultQueryResponse {
+
+    @Schema(description = "Zero-based page number", example = "0")
+    private int page;
+
+    @Schema(description = "Requested page size", example = "100")
+    private int size;
+
+    @Schema(description = "Total number of rows matching the filters", example = "42")
+    private long totalElements;
+
+    @Schema(description = "Total number of pages for the requested page size", example = "1")
+    private int totalPages;
+
+    @Schema(description = "Rows on this page")
+    private List<CsvResultRow> content;
+}
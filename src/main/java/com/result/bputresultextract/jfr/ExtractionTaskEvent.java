@@ -0,0 +1,36 @@
+package com.result.bputresultextract.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * One (regno, session) task, from the moment its virtual thread starts running it (including the wait
+ * for a concurrency permit) until its rows are ready. Time queued in the executor is not included.
+ */
+@Name("com.result.bputresultextract.ExtractionTask")
+@Label("Extraction Task")
+@Category({"BPUT", "Extraction"})
+@Description("Processing of one registration number for one session")
+@StackTrace(false)
+public class ExtractionTaskEvent extends Event {
+
+    @Label("Registration Number")
+    public String regno;
+
+    @Label("Session")
+    public String session;
+
+    @Label("Semaphore Wait")
+    @Description("Time spent waiting for a concurrency permit")
+    @Timespan(Timespan.NANOSECONDS)
+    public long semaphoreWait;
+
+    @Label("Rows")
+    @Description("Number of rows (or changes, in delta mode) produced")
+    public int rows;
+}
@@ -0,0 +1,50 @@
+package com.result.bputresultextract.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A single HTTP attempt against BPUT, split into connection acquire, server response and body decoding.
+ */
+@Name("com.result.bputresultextract.UpstreamAttempt")
+@Label("Upstream Attempt")
+@Category({"BPUT", "Upstream"})
+@Description("Single HTTP exchange with a BPUT endpoint")
+@StackTrace(false)
+public class UpstreamAttemptEvent extends Event {
+
+    @Label("Endpoint")
+    public String endpoint;
+
+    @Label("Roll Number")
+    public String rollNo;
+
+    @Label("Attempt")
+    public int attempt;
+
+    @Label("Connection Acquire")
+    @Description("From subscription until a pooled or new connection was ready to send the request")
+    @Timespan(Timespan.NANOSECONDS)
+    public long connectionAcquire;
+
+    @Label("Response")
+    @Description("From sending the request until response headers arrived")
+    @Timespan(Timespan.NANOSECONDS)
+    public long response;
+
+    @Label("Decode")
+    @Description("From response headers until the body was read and decoded")
+    @Timespan(Timespan.NANOSECONDS)
+    public long decode;
+
+    @Label("Status")
+    public int status;
+
+    @Label("Error")
+    public String error;
+}
@@ -0,0 +1,43 @@
+package com.result.bputresultextract.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * One logical call to a BPUT endpoint, including all retries and the backoff between them.
+ */
+@Name("com.result.bputresultextract.UpstreamCall")
+@Label("Upstream Call")
+@Category({"BPUT", "Upstream"})
+@Description("Blocking call to a BPUT endpoint, including retries")
+@StackTrace(false)
+public class UpstreamCallEvent extends Event {
+
+    @Label("Endpoint")
+    public String endpoint;
+
+    @Label("Roll Number")
+    public String rollNo;
+
+    @Label("Semester Id")
+    public String semId;
+
+    @Label("Session")
+    public String session;
+
+    @Label("Attempts")
+    public int attempts;
+
+    @Label("Retry Backoff")
+    @Description("Total time spent waiting between attempts")
+    @Timespan(Timespan.NANOSECONDS)
+    public long retryBackoff;
+
+    @Label("Success")
+    public boolean success;
+}
@@ -0,0 +1,127 @@
+package com.result.bputresultextract.jfr;
+
+/**
+ * Collects the phase timestamps of one upstream call and turns them into JFR events.
+ * The trace is placed in the Reactor context under {@link #CONTEXT_KEY} so that the
+ * HTTP client can mark the moment a connection was acquired.
+ * When no recording is active the events are disabled and nothing is committed.
+ */
+public final class UpstreamCallTrace {
+
+    public static final String CONTEXT_KEY = UpstreamCallTrace.class.getName();
+
+    private final UpstreamCallEvent callEvent;
+    private final String endpoint;
+    private final String rollNo;
+
+    private volatile UpstreamAttemptEvent attemptEvent;
+    private volatile int attempts;
+    private volatile long attemptStartNanos;
+    private volatile long connectionAcquiredNanos;
+    private volatile long responseReceivedNanos;
+    private volatile long retryScheduledNanos;
+    private volatile long retryBackoffNanos;
+    private volatile boolean failed;
+
+    private UpstreamCallTrace(String endpoint, String rollNo, String semId, String session) {
+        this.endpoint = endpoint;
+        this.rollNo = rollNo;
+        this.callEvent = new UpstreamCallEvent();
+        if (callEvent.isEnabled()) {
+            callEvent.endpoint = endpoint;
+            callEvent.rollNo = rollNo;
+            callEvent.semId = semId;
+            callEvent.session = session;
+            callEvent.begin();
+        }
+    }
+
+    public static UpstreamCallTrace begin(String endpoint, String rollNo, String semId, String session) {
+        return new UpstreamCallTrace(endpoint, rollNo, semId, session);
+    }
+
+    /**
+     * Called on every (re)subscription, i.e. once per attempt.
+     */
+    public void attemptStarted() {
+        long now = System.nanoTime();
+        if (retryScheduledNanos != 0) {
+            retryBackoffNanos += now - retryScheduledNanos;
+            retryScheduledNanos = 0;
+        }
+        attempts++;
+        attemptStartNanos = now;
+        connectionAcquiredNanos = 0;
+        responseReceivedNanos = 0;
+
+        UpstreamAttemptEvent event = new UpstreamAttemptEvent();
+        if (event.isEnabled()) {
+            event.endpoint = endpoint;
+            event.rollNo = rollNo;
+            event.attempt = attempts;
+            event.begin();
+        }
+        attemptEvent = event;
+    }
+
+    public void connectionAcquired() {
+        connectionAcquiredNanos = System.nanoTime();
+    }
+
+    public void responseReceived(int status) {
+        responseReceivedNanos = System.nanoTime();
+        UpstreamAttemptEvent event = attemptEvent;
+        if (event != null) {
+            event.status = status;
+        }
+    }
+
+    /**
+     * Called once per attempt on success, error or cancellation (call timeout); later calls are ignored.
+     */
+    public synchronized void attemptFinished(Throwable error) {
+        UpstreamAttemptEvent event = attemptEvent;
+        attemptEvent = null;
+        if (event == null || !event.isEnabled()) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            long now = System.nanoTime();
+            long acquired = connectionAcquiredNanos != 0 ? connectionAcquiredNanos : now;
+            event.connectionAcquire = acquired - attemptStartNanos;
+            if (connectionAcquiredNanos != 0) {
+                long received = responseReceivedNanos != 0 ? responseReceivedNanos : now;
+                event.response = received - connectionAcquiredNanos;
+            }
+            if (responseReceivedNanos != 0) {
+                event.decode = now - responseReceivedNanos;
+            }
+            if (error != null) {
+                event.error = error.getMessage();
+            }
+            event.commit();
+        }
+    }
+
+    public void retryScheduled() {
+        retryScheduledNanos = System.nanoTime();
+    }
+
+    public void markFailed() {
+        failed = true;
+    }
+
+    public void end() {
+        if (!callEvent.isEnabled()) {
+            return;
+        }
+        callEvent.end();
+        if (callEvent.shouldCommit()) {
+            callEvent.attempts = attempts;
+            callEvent.retryBackoff = retryBackoffNanos;
+            callEvent.success = !failed;
+            callEvent.commit();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.result.bputresultextract.service;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for one (regno, session) task or a whole job, reported as a single summary log line
+ * instead of logging every upstream call.
+ * Updated from the task thread and from Reactor threads (retry callbacks), hence the adders.
+ */
+final class ExtractionStats {
+
+    final LongAdder tasks = new LongAdder();
+    final LongAdder semesters = new LongAdder();
+    final LongAdder rows = new LongAdder();
+    final LongAdder calls = new LongAdder();
+    final LongAdder retries = new LongAdder();
+    final LongAdder failedCalls = new LongAdder();
+    final LongAdder suppressedLogs = new LongAdder();
+
+    void add(ExtractionStats other) {
+        tasks.add(other.tasks.sum());
+        semesters.add(other.semesters.sum());
+        rows.add(other.rows.sum());
+        calls.add(other.calls.sum());
+        retries.add(other.retries.sum());
+        failedCalls.add(other.failedCalls.sum());
+        suppressedLogs.add(other.suppressedLogs.sum());
+    }
+}
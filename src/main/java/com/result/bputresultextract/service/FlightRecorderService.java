@@ -0,0 +1,76 @@
+package com.result.bputresultextract.service;
+
+import com.result.bputresultextract.jfr.ExtractionTaskEvent;
+import com.result.bputresultextract.jfr.UpstreamAttemptEvent;
+import com.result.bputresultextract.jfr.UpstreamCallEvent;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Starts and dumps an in-process JDK Flight Recorder recording of the extraction events.
+ * Only the application's own events are enabled; JDK events (which include the process environment
+ * and system properties) are never recorded. Only one recording is managed at a time.
+ */
+@Service
+@Slf4j
+public class FlightRecorderService {
+
+    private Recording recording;
+
+    public synchronized void start(Duration maxAge) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            throw new IllegalStateException("A recording is already running");
+        }
+
+        // No Configuration: every JDK event stays disabled, only the events enabled below are recorded
+        Recording newRecording = new Recording();
+        newRecording.setName("bput-extraction");
+        newRecording.setToDisk(true);
+        newRecording.setMaxAge(maxAge);
+        newRecording.enable(ExtractionTaskEvent.class);
+        newRecording.enable(UpstreamCallEvent.class);
+        newRecording.enable(UpstreamAttemptEvent.class);
+        newRecording.start();
+
+        if (recording != null) {
+            recording.close();
+        }
+        recording = newRecording;
+        log.info("Started JFR recording with max age {}", maxAge);
+    }
+
+    /**
+     * Write everything recorded so far to a temporary .jfr file and return its path.
+     * The caller owns the file and must delete it. The recording keeps running unless stop is true.
+     */
+    public synchronized Path dump(boolean stop) throws IOException {
+        if (recording == null) {
+            throw new IllegalStateException("No recording has been started");
+        }
+
+        Path file = Files.createTempFile("bput-extraction-", ".jfr");
+        try {
+            if (stop && recording.getState() == RecordingState.RUNNING) {
+                recording.stop();
+            }
+            recording.dump(file);
+            return file;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        } finally {
+            if (stop) {
+                recording.close();
+                recording = null;
+                log.info("Stopped JFR recording");
+            }
+        }
+    }
+}
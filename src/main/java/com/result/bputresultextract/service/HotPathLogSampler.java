@@ -0,0 +1,62 @@
+package com.result.bputresultextract.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Rate limiter for per-call INFO logs on the extraction path.
+ * Allows at most {@code maxPerSecond} lines per second across all extraction threads; the rest are dropped
+ * and only show up as a count in the task and job summaries. Warnings and errors never go through the sampler.
+ */
+@Component
+public class HotPathLogSampler {
+
+    private final boolean sampled;
+    private final int maxPerSecond;
+    private final LongSupplier nanoTime;
+
+    // Upper 32 bits: current second (truncated), lower 32 bits: lines allowed in that second.
+    // Kept in one word so that rolling over to a new second and counting are a single CAS.
+    private final AtomicLong state = new AtomicLong();
+
+    @Autowired
+    public HotPathLogSampler(@Value("${bput.extraction.logging.sampled:true}") boolean sampled,
+                             @Value("${bput.extraction.logging.max-per-second:20}") int maxPerSecond) {
+        this(sampled, maxPerSecond, System::nanoTime);
+    }
+
+    HotPathLogSampler(boolean sampled, int maxPerSecond, LongSupplier nanoTime) {
+        this.sampled = sampled;
+        this.maxPerSecond = maxPerSecond;
+        this.nanoTime = nanoTime;
+    }
+
+    public boolean shouldLog() {
+        if (!sampled) {
+            return true;
+        }
+        if (maxPerSecond <= 0) {
+            return false;
+        }
+
+        long second = (nanoTime.getAsLong() / 1_000_000_000L) & 0xFFFFFFFFL;
+        while (true) {
+            long current = state.get();
+            long next;
+            if ((current >>> 32) != second) {
+                next = (second << 32) | 1;
+            } else if ((int) current >= maxPerSecond) {
+                return false;
+            } else {
+                next = current + 1;
+            }
+            if (state.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.result.bputresultextract.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.result.bputresultextract.dto.CsvResultRow;
+import com.result.bputresultextract.dto.GradeChange;
+import com.result.bputresultextract.dto.SubjectResult;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Owns the baseline that delta mode diffs against: per semester result (regdNo, semId, examSession) the
+ * content hash and the rows seen by the previous delta run, plus which (regno, session) pairs have been
+ * checked at all. The baseline is independent of the {@link ResultStore}, so a full extraction in between
+ * two delta runs cannot hide a change; the store is only updated alongside.
+ * A semester whose hash is unchanged is skipped without looking at its rows.
+ * The baseline is written to {@code bput.delta.baseline-file} after every delta job and loaded on startup.
+ */
+@Service
+@Slf4j
+public class ResultDeltaTracker {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final int LOCK_STRIPES = 64;
+
+    private final ResultStore resultStore;
+    private final ObjectMapper objectMapper;
+    private final Path baselineFile;
+
+    private final Set<String> seenTasks = ConcurrentHashMap.newKeySet();
+    private final Map<String, SemesterBaseline> semesters = new ConcurrentHashMap<>();
+    private final ReentrantLock[] semesterLocks = new ReentrantLock[LOCK_STRIPES];
+
+    /**
+     * Rows of one semester result as last seen by delta mode, keyed by subject code.
+     */
+    record SemesterBaseline(long hash, Map<String, CsvResultRow> rows) {
+    }
+
+    /**
+     * On-disk form of the baseline.
+     */
+    record BaselineSnapshot(Set<String> seenTasks, Map<String, SemesterBaseline> semesters) {
+    }
+
+    public ResultDeltaTracker(ResultStore resultStore, ObjectMapper objectMapper,
+                              @Value("${bput.delta.baseline-file:}") String baselineFile) {
+        this.resultStore = resultStore;
+        this.objectMapper = objectMapper;
+        this.baselineFile = baselineFile == null || baselineFile.isBlank() ? null : Path.of(baselineFile);
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            semesterLocks[i] = new ReentrantLock();
+        }
+    }
+
+    @PostConstruct
+    public void loadBaseline() {
+        if (baselineFile == null || !Files.exists(baselineFile)) {
+            log.info("No delta baseline file found, delta mode needs seeding before it reports changes");
+            return;
+        }
+
+        try {
+            BaselineSnapshot snapshot = objectMapper.readValue(baselineFile.toFile(), BaselineSnapshot.class);
+            seenTasks.addAll(snapshot.seenTasks());
+            semesters.putAll(snapshot.semesters());
+            log.info("Loaded delta baseline with {} (regno, session) pairs and {} semesters from {}",
+                    seenTasks.size(), semesters.size(), baselineFile);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read delta baseline from " + baselineFile, e);
+        }
+    }
+
+    /**
+     * Persist the baseline, replacing the file atomically so a crash never leaves a half-written baseline.
+     */
+    public void saveBaseline() {
+        if (baselineFile == null) {
+            return;
+        }
+
+        try {
+            Path parent = baselineFile.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path tempFile = Files.createTempFile(parent, "delta-baseline-", ".tmp");
+            objectMapper.writeValue(tempFile.toFile(),
+                    new BaselineSnapshot(new HashSet<>(seenTasks), new HashMap<>(semesters)));
+            Files.move(tempFile, baselineFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.error("Failed to write delta baseline to {}", baselineFile, e);
+        }
+    }
+
+    public boolean hasSeenTask(String regno, String session) {
+        return seenTasks.contains(regno + "|" + session);
+    }
+
+    public void markTaskSeen(String regno, String session) {
+        seenTasks.add(regno + "|" + session);
+    }
+
+    /**
+     * Compare freshly fetched subjects of one semester with the baseline from the previous delta run,
+     * update the baseline and the store, and return only the rows that were added, removed or changed.
+     * A semester with no baseline yet is reported as ADDED; callers decide whether to emit that.
+     * The check, diff and update hold a lock per semester, so overlapping delta runs cannot report
+     * the same change twice.
+     */
+    public List<GradeChange> diffSemester(String regno, String semId, String session, List<SubjectResult> subjects) {
+        String key = regno + "|" + semId + "|" + session;
+        long hash = contentHash(subjects);
+
+        Map<String, CsvResultRow> currentRows = new HashMap<>();
+        Map<String, Integer> rechecks = new HashMap<>();
+        for (SubjectResult subject : subjects) {
+            currentRows.put(subject.getSubjectCODE(), CsvResultRow.builder()
+                    .regdNo(regno)
+                    .semId(semId)
+                    .subjectCode(subject.getSubjectCODE())
+                    .credits(subject.getSubjectCredits())
+                    .grade(subject.getGrade())
+                    .examSession(session)
+                    .build());
+            rechecks.put(subject.getSubjectCODE(), subject.getRecheck());
+        }
+
+        List<GradeChange> changes = new ArrayList<>();
+        ReentrantLock lock = semesterLocks[Math.floorMod(key.hashCode(), LOCK_STRIPES)];
+        lock.lock();
+        try {
+            SemesterBaseline baseline = semesters.get(key);
+            if (baseline != null && baseline.hash() == hash) {
+                return changes;
+            }
+
+            Map<String, CsvResultRow> previousRows = baseline != null ? new HashMap<>(baseline.rows()) : new HashMap<>();
+            for (CsvResultRow row : currentRows.values()) {
+                Integer recheck = rechecks.get(row.getSubjectCode());
+                CsvResultRow previous = previousRows.remove(row.getSubjectCode());
+                if (previous == null) {
+                    changes.add(toChange(row, GradeChange.ChangeType.ADDED, null, row.getGrade(), recheck));
+                } else if (!Objects.equals(previous.getGrade(), row.getGrade())
+                        || !Objects.equals(previous.getCredits(), row.getCredits())) {
+                    changes.add(toChange(row, GradeChange.ChangeType.CHANGED, previous.getGrade(), row.getGrade(), recheck));
+                }
+            }
+
+            // Whatever is left was in the baseline but is no longer returned by BPUT
+            for (CsvResultRow removed : previousRows.values()) {
+                changes.add(toChange(removed, GradeChange.ChangeType.REMOVED, removed.getGrade(), null, null));
+            }
+
+            semesters.put(key, new SemesterBaseline(hash, currentRows));
+            resultStore.replaceSemester(regno, semId, session, new ArrayList<>(currentRows.values()));
+        } finally {
+            lock.unlock();
+        }
+
+        if (!changes.isEmpty()) {
+            log.debug("Detected {} grade changes for regno: {}, semId: {}, session: {}", changes.size(), regno, semId, session);
+        }
+
+        return changes;
+    }
+
+    private GradeChange toChange(CsvResultRow row, GradeChange.ChangeType type, String oldGrade, String newGrade, Integer recheck) {
+        return GradeChange.builder()
+                .regdNo(row.getRegdNo())
+                .semId(row.getSemId())
+                .subjectCode(row.getSubjectCode())
+                .examSession(row.getExamSession())
+                .change(type)
+                .oldGrade(oldGrade)
+                .newGrade(newGrade)
+                .credits(row.getCredits())
+                .recheck(recheck)
+                .build();
+    }
+
+    /**
+     * 64-bit FNV-1a over the fields that matter for a grade sheet, in subject code order
+     * so that BPUT returning the same subjects in a different order does not count as a change.
+     */
+    private long contentHash(List<SubjectResult> subjects) {
+        List<SubjectResult> sorted = new ArrayList<>(subjects);
+        sorted.sort(Comparator.comparing(SubjectResult::getSubjectCODE, Comparator.nullsFirst(Comparator.naturalOrder())));
+
+        long hash = FNV_OFFSET_BASIS;
+        for (SubjectResult subject : sorted) {
+            String line = subject.getSubjectCODE() + "," + subject.getSubjectCredits() + ","
+                    + subject.getGrade() + "," + subject.getRecheck() + "\n";
+            for (byte b : line.getBytes(StandardCharsets.UTF_8)) {
+                hash ^= (b & 0xff);
+                hash *= FNV_PRIME;
+            }
+        }
+        return hash;
+    }
+}
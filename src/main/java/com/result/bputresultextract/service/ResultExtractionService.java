@@ -2,14 +2,20 @@ package com.result.bputresultextract.service;
 
 import com.result.bputresultextract.dto.CsvResultRow;
 import com.result.bputresultextract.dto.ExtractionRequest;
+import com.result.bputresultextract.dto.GradeChange;
 import com.result.bputresultextract.dto.ResultListItem;
 import com.result.bputresultextract.dto.SubjectResult;
+import com.result.bputresultextract.jfr.ExtractionTaskEvent;
+import com.result.bputresultextract.jfr.UpstreamCallTrace;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
 import reactor.util.retry.Retry;
 
 import java.time.Duration;
@@ -24,11 +30,69 @@ import java.util.stream.Collectors;
 public class ResultExtractionService {
 
     private final WebClient bputWebClient;
+    private final ResultStore resultStore;
+    private final ResultDeltaTracker resultDeltaTracker;
+    private final HotPathLogSampler logSampler;
+    // Task and job summaries get their own logger so the async appender never discards them (see logback-spring.xml)
+    private static final Logger summaryLog = LoggerFactory.getLogger(ResultExtractionService.class.getName() + ".summary");
     private static final int MAX_CONCURRENT_REQUESTS = 5;
     private static final int MAX_RETRIES = 3;
     private static final Duration RETRY_BACKOFF = Duration.ofSeconds(2);
+    private static final Duration CALL_TIMEOUT = Duration.ofSeconds(30);
 
     public List<CsvResultRow> extractResultsForRegnos(List<String> regnos, String dob, String startSession, String endSession) {
+        List<CsvResultRow> allResults = runForEachRegnoAndSession("extract", regnos, startSession, endSession,
+                (regno, session, stats) -> processRegnoForSession(regno, dob, session, stats));
+
+        // Keep the extracted rows queryable without going back to BPUT
+        resultStore.addAll(allResults);
+
+        return allResults;
+    }
+
+    /**
+     * Delta mode: re-fetch the given range but only report grades that were added, removed or
+     * changed since the previous delta run (typically after a recheck cycle). Semesters whose content
+     * hash is unchanged are skipped without being diffed.
+     * A (regno, session) pair that delta mode has never checked has no baseline: unless seed is true the
+     * request is rejected instead of reporting every grade of it as ADDED. With seed, the baseline of such
+     * pairs is recorded silently and only pairs that already had one report changes.
+     */
+    public List<GradeChange> extractGradeChangesForRegnos(List<String> regnos, String dob, String startSession,
+                                                          String endSession, boolean seed) {
+        if (!seed) {
+            List<String> sessions = generateSessions(startSession, endSession);
+            long missing = 0;
+            for (String regno : regnos) {
+                for (String session : sessions) {
+                    if (!resultDeltaTracker.hasSeenTask(regno, session)) {
+                        missing++;
+                    }
+                }
+            }
+            if (missing > 0) {
+                throw new IllegalStateException("No delta baseline for " + missing + " of " + (long) regnos.size() * sessions.size()
+                        + " (regno, session) pairs. Run the delta request once with seed=true to record it.");
+            }
+        }
+
+        try {
+            return runForEachRegnoAndSession("delta", regnos, startSession, endSession,
+                    (regno, session, stats) -> processRegnoForSessionDelta(regno, dob, session, stats));
+        } finally {
+            resultDeltaTracker.saveBaseline();
+        }
+    }
+
+    @FunctionalInterface
+    private interface RegnoSessionTask<T> {
+        List<T> process(String regno, String session, ExtractionStats stats);
+    }
+
+    private <T> List<T> runForEachRegnoAndSession(String mode, List<String> regnos, String startSession, String endSession,
+                                                  RegnoSessionTask<T> task) {
+        long jobStart = System.nanoTime();
+        ExtractionStats jobStats = new ExtractionStats();
         Semaphore semaphore = new Semaphore(MAX_CONCURRENT_REQUESTS);
 
         // Generate list of all sessions from start to end
@@ -37,17 +101,37 @@ public class ResultExtractionService {
 
         // Use virtual thread executor (stable in Java 21)
         try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
-            List<Future<List<CsvResultRow>>> futures = new ArrayList<>();
+            List<Future<List<T>>> futures = new ArrayList<>();
 
             for (String regno : regnos) {
                 for (String session : sessions) {
-                    Future<List<CsvResultRow>> future = executor.submit(() -> {
+                    Future<List<T>> future = executor.submit(() -> {
+                        ExtractionTaskEvent taskEvent = new ExtractionTaskEvent();
+                        taskEvent.begin();
                         try {
+                            long waitStart = System.nanoTime();
                             semaphore.acquire();
+                            taskEvent.semaphoreWait = System.nanoTime() - waitStart;
+                            long taskStart = System.nanoTime();
+                            ExtractionStats taskStats = new ExtractionStats();
                             try {
-                                return processRegnoForSession(regno, dob, session);
+                                List<T> taskResults = task.process(regno, session, taskStats);
+                                taskEvent.rows = taskResults.size();
+                                taskStats.rows.add(taskResults.size());
+                                return taskResults;
                             } finally {
                                 semaphore.release();
+                                taskStats.tasks.increment();
+                                jobStats.add(taskStats);
+                                summaryLog.info("Task summary mode={} regno={} session={} semesters={} rows={} calls={} retries={} failedCalls={} suppressedLogs={} elapsedMs={}",
+                                        mode, regno, session, taskStats.semesters.sum(), taskStats.rows.sum(), taskStats.calls.sum(),
+                                        taskStats.retries.sum(), taskStats.failedCalls.sum(), taskStats.suppressedLogs.sum(),
+                                        (System.nanoTime() - taskStart) / 1_000_000);
+                                if (taskEvent.shouldCommit()) {
+                                    taskEvent.regno = regno;
+                                    taskEvent.session = session;
+                                    taskEvent.commit();
+                                }
                             }
                         } catch (InterruptedException e) {
                             Thread.currentThread().interrupt();
@@ -60,8 +144,8 @@ public class ResultExtractionService {
             }
 
             // Collect results from all futures
-            List<CsvResultRow> allResults = new ArrayList<>();
-            for (Future<List<CsvResultRow>> future : futures) {
+            List<T> allResults = new ArrayList<>();
+            for (Future<List<T>> future : futures) {
                 try {
                     allResults.addAll(future.get());
                 } catch (InterruptedException e) {
@@ -72,6 +156,11 @@ public class ResultExtractionService {
                 }
             }
 
+            summaryLog.info("Job summary mode={} regnos={} sessions={} tasks={} semesters={} rows={} calls={} retries={} failedCalls={} suppressedLogs={} elapsedMs={}",
+                    mode, regnos.size(), sessions.size(), jobStats.tasks.sum(), jobStats.semesters.sum(), allResults.size(),
+                    jobStats.calls.sum(), jobStats.retries.sum(), jobStats.failedCalls.sum(), jobStats.suppressedLogs.sum(),
+                    (System.nanoTime() - jobStart) / 1_000_000);
+
             return allResults;
 
         } catch (Exception e) {
@@ -132,23 +221,27 @@ public class ResultExtractionService {
         }
     }
 
-    private List<CsvResultRow> processRegnoForSession(String regno, String dob, String session) {
-        log.info("Processing regno: {} for session: {}", regno, session);
+    private List<CsvResultRow> processRegnoForSession(String regno, String dob, String session, ExtractionStats stats) {
+        if (sampleLog(stats)) {
+            log.info("Processing regno: {} for session: {}", regno, session);
+        }
         List<CsvResultRow> results = new ArrayList<>();
 
         try {
             // Fetch the list of semesters for this regno
-            List<ResultListItem> semesterList = fetchResultList(regno, dob, session);
+            List<ResultListItem> semesterList = fetchResultList(regno, dob, session, stats);
 
             if (semesterList == null || semesterList.isEmpty()) {
                 log.warn("No results found for regno: {}", regno);
                 return results;
             }
 
+            stats.semesters.add(semesterList.size());
+
             // Process each semester
             for (ResultListItem item : semesterList) {
                 try {
-                    List<SubjectResult> subjects = fetchSubjectResults(item.getSemId(), regno, item.getExamSession());
+                    List<SubjectResult> subjects = fetchSubjectResults(item.getSemId(), regno, item.getExamSession(), stats);
 
                     if (subjects != null) {
                         for (SubjectResult subject : subjects) {
@@ -175,88 +268,208 @@ public class ResultExtractionService {
         return results;
     }
 
-    private List<ResultListItem> fetchResultList(String rollNo, String dob, String session) {
-        log.info("Fetching result list for rollNo: {}, dob: {}, session: {}", rollNo, dob, session);
-
-        return bputWebClient.post()
-                .uri(uriBuilder -> uriBuilder
-                        .path("/student-results-list")
-                        .queryParam("rollNo", rollNo)
-                        .queryParam("dob", dob)
-                        .queryParam("session", session)
-                        .build())
-                .exchangeToMono(response -> {
-                    log.info("Response status for rollNo {}: {}", rollNo, response.statusCode());
-
-                    if (response.statusCode().is2xxSuccessful()) {
-                        return response.bodyToMono(new ParameterizedTypeReference<List<ResultListItem>>() {})
-                                .doOnNext(list -> log.info("Successfully fetched {} semesters for rollNo: {}",
-                                        list != null ? list.size() : 0, rollNo))
-                                .doOnError(error -> log.error("Error parsing response body for rollNo: {}, error: {}",
-                                        rollNo, error.getMessage()));
-                    } else {
-                        return response.bodyToMono(String.class)
-                                .doOnNext(body -> log.error("Non-2xx response for rollNo: {}, status: {}, body: {}",
-                                        rollNo, response.statusCode(), body))
-                                .then(Mono.error(new RuntimeException("HTTP " + response.statusCode() + " for rollNo: " + rollNo)));
+    private List<GradeChange> processRegnoForSessionDelta(String regno, String dob, String session, ExtractionStats stats) {
+        if (sampleLog(stats)) {
+            log.info("Checking regno: {} for session: {} for grade changes", regno, session);
+        }
+        List<GradeChange> changes = new ArrayList<>();
+        // First check of this pair: record the baseline but report nothing
+        boolean seeding = !resultDeltaTracker.hasSeenTask(regno, session);
+
+        try {
+            List<ResultListItem> semesterList = fetchResultList(regno, dob, session, stats);
+
+            if (semesterList == null || semesterList.isEmpty()) {
+                log.warn("No results found for regno: {}", regno);
+                resultDeltaTracker.markTaskSeen(regno, session);
+                return changes;
+            }
+
+            stats.semesters.add(semesterList.size());
+
+            for (ResultListItem item : semesterList) {
+                try {
+                    List<SubjectResult> subjects = fetchSubjectResults(item.getSemId(), regno, item.getExamSession(), stats);
+
+                    // A failed fetch also comes back empty; never report that as every subject being removed
+                    if (subjects == null || subjects.isEmpty()) {
+                        log.warn("No subjects returned for regno: {}, semId: {}, skipping delta", regno, item.getSemId());
+                        continue;
+                    }
+
+                    // Key by the subject's semId, as /extract writes it to the store
+                    String semId = subjects.get(0).getSemId() != null ? subjects.get(0).getSemId() : item.getSemId();
+                    List<GradeChange> semesterChanges = resultDeltaTracker.diffSemester(regno, semId, item.getExamSession(), subjects);
+                    if (!seeding) {
+                        changes.addAll(semesterChanges);
                     }
-                })
-                .retryWhen(Retry.backoff(MAX_RETRIES, RETRY_BACKOFF)
-                        .doBeforeRetry(signal ->
+                } catch (Exception e) {
+                    log.error("Error processing semester {} for regno {}", item.getSemId(), regno, e);
+                }
+            }
+
+            resultDeltaTracker.markTaskSeen(regno, session);
+
+        } catch (Exception e) {
+            log.error("Error processing regno: {}", regno, e);
+        }
+
+        return changes;
+    }
+
+    private List<ResultListItem> fetchResultList(String rollNo, String dob, String session, ExtractionStats stats) {
+        stats.calls.increment();
+        if (sampleLog(stats)) {
+            log.info("Fetching result list for rollNo: {}, session: {}", rollNo, session);
+        }
+
+        UpstreamCallTrace trace = UpstreamCallTrace.begin("/student-results-list", rollNo, null, session);
+        try {
+            return Mono.defer(() -> {
+                        trace.attemptStarted();
+                        return bputWebClient.post()
+                                .uri(uriBuilder -> uriBuilder
+                                        .path("/student-results-list")
+                                        .queryParam("rollNo", rollNo)
+                                        .queryParam("dob", dob)
+                                        .queryParam("session", session)
+                                        .build())
+                                .exchangeToMono(response -> {
+                                    trace.responseReceived(response.statusCode().value());
+                                    if (sampleLog(stats)) {
+                                        log.info("Response status for rollNo {}: {}", rollNo, response.statusCode());
+                                    }
+
+                                    if (response.statusCode().is2xxSuccessful()) {
+                                        return response.bodyToMono(new ParameterizedTypeReference<List<ResultListItem>>() {})
+                                                .doOnNext(list -> {
+                                                    if (sampleLog(stats)) {
+                                                        log.info("Successfully fetched {} semesters for rollNo: {}",
+                                                                list != null ? list.size() : 0, rollNo);
+                                                    }
+                                                })
+                                                .doOnError(error -> log.error("Error parsing response body for rollNo: {}, error: {}",
+                                                        rollNo, error.getMessage()));
+                                    } else {
+                                        return response.bodyToMono(String.class)
+                                                .doOnNext(body -> log.error("Non-2xx response for rollNo: {}, status: {}, body: {}",
+                                                        rollNo, response.statusCode(), body))
+                                                .then(Mono.error(new RuntimeException("HTTP " + response.statusCode() + " for rollNo: " + rollNo)));
+                                    }
+                                })
+                                .doOnSuccess(list -> trace.attemptFinished(null))
+                                .doOnError(trace::attemptFinished)
+                                .doOnCancel(() -> trace.attemptFinished(new TimeoutException("Call timed out after " + CALL_TIMEOUT)))
+                                .contextWrite(Context.of(UpstreamCallTrace.CONTEXT_KEY, trace));
+                    })
+                    .retryWhen(Retry.backoff(MAX_RETRIES, RETRY_BACKOFF)
+                            .doBeforeRetry(signal -> {
+                                trace.retryScheduled();
+                                stats.retries.increment();
                                 log.warn("Retrying fetchResultList for rollNo: {} (attempt {}), error: {}",
-                                        rollNo, signal.totalRetries() + 1, signal.failure().getMessage()))
-                        .onRetryExhaustedThrow((retryBackoffSpec, retrySignal) -> {
-                            log.error("Max retries exceeded for fetchResultList: rollNo={}, last error: {}",
-                                    rollNo, retrySignal.failure().getMessage());
-                            return new RuntimeException("Failed to fetch result list after " + MAX_RETRIES + " retries for rollNo: " + rollNo);
-                        }))
-                .onErrorResume(error -> {
-                    log.error("Returning empty list due to error for rollNo: {}, error: {}", rollNo, error.getMessage());
-                    return Mono.just(new ArrayList<>());
-                })
-                .block(Duration.ofSeconds(30));
+                                        rollNo, signal.totalRetries() + 1, signal.failure().getMessage());
+                            })
+                            .onRetryExhaustedThrow((retryBackoffSpec, retrySignal) -> {
+                                log.error("Max retries exceeded for fetchResultList: rollNo={}, last error: {}",
+                                        rollNo, retrySignal.failure().getMessage());
+                                return new RuntimeException("Failed to fetch result list after " + MAX_RETRIES + " retries for rollNo: " + rollNo);
+                            }))
+                    // Time out inside the pipeline rather than in block(), so a timeout is handled
+                    // (and traced and counted) like any other failed call
+                    .timeout(CALL_TIMEOUT)
+                    .onErrorResume(error -> {
+                        trace.markFailed();
+                        stats.failedCalls.increment();
+                        log.error("Returning empty list due to error for rollNo: {}, error: {}", rollNo, error.getMessage());
+                        return Mono.just(new ArrayList<>());
+                    })
+                    .block();
+        } finally {
+            trace.end();
+        }
     }
 
-    private List<SubjectResult> fetchSubjectResults(String semId, String rollNo, String session) {
-        log.info("Fetching subject results for rollNo: {}, semId: {}, session: {}", rollNo, semId, session);
-
-        return bputWebClient.post()
-                .uri(uriBuilder -> uriBuilder
-                        .path("/student-results-subjects-list")
-                        .queryParam("semid", semId)
-                        .queryParam("rollNo", rollNo)
-                        .queryParam("session", session)
-                        .build())
-                .exchangeToMono(response -> {
-                    log.info("Response status for rollNo {}, semId {}: {}", rollNo, semId, response.statusCode());
-
-                    if (response.statusCode().is2xxSuccessful()) {
-                        return response.bodyToMono(new ParameterizedTypeReference<List<SubjectResult>>() {})
-                                .doOnNext(list -> log.info("Successfully fetched {} subjects for rollNo: {}, semId: {}",
-                                        list != null ? list.size() : 0, rollNo, semId))
-                                .doOnError(error -> log.error("Error parsing response body for rollNo: {}, semId: {}, error: {}",
-                                        rollNo, semId, error.getMessage()));
-                    } else {
-                        return response.bodyToMono(String.class)
-                                .doOnNext(body -> log.error("Non-2xx response for rollNo: {}, semId: {}, status: {}, body: {}",
-                                        rollNo, semId, response.statusCode(), body))
-                                .then(Mono.error(new RuntimeException("HTTP " + response.statusCode() + " for rollNo: " + rollNo + ", semId: " + semId)));
-                    }
-                })
-                .retryWhen(Retry.backoff(MAX_RETRIES, RETRY_BACKOFF)
-                        .doBeforeRetry(signal ->
+    private List<SubjectResult> fetchSubjectResults(String semId, String rollNo, String session, ExtractionStats stats) {
+        stats.calls.increment();
+        if (sampleLog(stats)) {
+            log.info("Fetching subject results for rollNo: {}, semId: {}, session: {}", rollNo, semId, session);
+        }
+
+        UpstreamCallTrace trace = UpstreamCallTrace.begin("/student-results-subjects-list", rollNo, semId, session);
+        try {
+            return Mono.defer(() -> {
+                        trace.attemptStarted();
+                        return bputWebClient.post()
+                                .uri(uriBuilder -> uriBuilder
+                                        .path("/student-results-subjects-list")
+                                        .queryParam("semid", semId)
+                                        .queryParam("rollNo", rollNo)
+                                        .queryParam("session", session)
+                                        .build())
+                                .exchangeToMono(response -> {
+                                    trace.responseReceived(response.statusCode().value());
+                                    if (sampleLog(stats)) {
+                                        log.info("Response status for rollNo {}, semId {}: {}", rollNo, semId, response.statusCode());
+                                    }
+
+                                    if (response.statusCode().is2xxSuccessful()) {
+                                        return response.bodyToMono(new ParameterizedTypeReference<List<SubjectResult>>() {})
+                                                .doOnNext(list -> {
+                                                    if (sampleLog(stats)) {
+                                                        log.info("Successfully fetched {} subjects for rollNo: {}, semId: {}",
+                                                                list != null ? list.size() : 0, rollNo, semId);
+                                                    }
+                                                })
+                                                .doOnError(error -> log.error("Error parsing response body for rollNo: {}, semId: {}, error: {}",
+                                                        rollNo, semId, error.getMessage()));
+                                    } else {
+                                        return response.bodyToMono(String.class)
+                                                .doOnNext(body -> log.error("Non-2xx response for rollNo: {}, semId: {}, status: {}, body: {}",
+                                                        rollNo, semId, response.statusCode(), body))
+                                                .then(Mono.error(new RuntimeException("HTTP " + response.statusCode() + " for rollNo: " + rollNo + ", semId: " + semId)));
+                                    }
+                                })
+                                .doOnSuccess(list -> trace.attemptFinished(null))
+                                .doOnError(trace::attemptFinished)
+                                .doOnCancel(() -> trace.attemptFinished(new TimeoutException("Call timed out after " + CALL_TIMEOUT)))
+                                .contextWrite(Context.of(UpstreamCallTrace.CONTEXT_KEY, trace));
+                    })
+                    .retryWhen(Retry.backoff(MAX_RETRIES, RETRY_BACKOFF)
+                            .doBeforeRetry(signal -> {
+                                trace.retryScheduled();
+                                stats.retries.increment();
                                 log.warn("Retrying fetchSubjectResults for rollNo: {}, semId: {} (attempt {}), error: {}",
-                                        rollNo, semId, signal.totalRetries() + 1, signal.failure().getMessage()))
-                        .onRetryExhaustedThrow((retryBackoffSpec, retrySignal) -> {
-                            log.error("Max retries exceeded for fetchSubjectResults: rollNo={}, semId={}, last error: {}",
-                                    rollNo, semId, retrySignal.failure().getMessage());
-                            return new RuntimeException("Failed to fetch subject results after " + MAX_RETRIES + " retries for rollNo: " + rollNo + ", semId: " + semId);
-                        }))
-                .onErrorResume(error -> {
-                    log.error("Returning empty list due to error for rollNo: {}, semId: {}, error: {}", rollNo, semId, error.getMessage());
-                    return Mono.just(new ArrayList<>());
-                })
-                .block(Duration.ofSeconds(30));
+                                        rollNo, semId, signal.totalRetries() + 1, signal.failure().getMessage());
+                            })
+                            .onRetryExhaustedThrow((retryBackoffSpec, retrySignal) -> {
+                                log.error("Max retries exceeded for fetchSubjectResults: rollNo={}, semId={}, last error: {}",
+                                        rollNo, semId, retrySignal.failure().getMessage());
+                                return new RuntimeException("Failed to fetch subject results after " + MAX_RETRIES + " retries for rollNo: " + rollNo + ", semId: " + semId);
+                            }))
+                    // Time out inside the pipeline rather than in block(), so a timeout is handled
+                    // (and traced and counted) like any other failed call
+                    .timeout(CALL_TIMEOUT)
+                    .onErrorResume(error -> {
+                        trace.markFailed();
+                        stats.failedCalls.increment();
+                        log.error("Returning empty list due to error for rollNo: {}, semId: {}, error: {}", rollNo, semId, error.getMessage());
+                        return Mono.just(new ArrayList<>());
+                    })
+                    .block();
+        } finally {
+            trace.end();
+        }
+    }
+
+    /**
+     * Per-call INFO logs go through the sampler; dropped lines are only counted in the summaries
+     */
+    private boolean sampleLog(ExtractionStats stats) {
+        if (logSampler.shouldLog()) {
+            return true;
+        }
+        stats.suppressedLogs.increment();
+        return false;
     }
 
     public String generateCsv(List<CsvResultRow> results) {
@@ -280,6 +493,30 @@ public class ResultExtractionService {
         return csv.toString();
     }
 
+    public String generateChangeCsv(List<GradeChange> changes) {
+        StringBuilder csv = new StringBuilder();
+
+        // CSV Header
+        csv.append("regdNo,semId,subjectCode,examSession,change,oldGrade,newGrade,credits,recheck\n");
+
+        // CSV Rows
+        for (GradeChange change : changes) {
+            csv.append(String.format("%s,%s,%s,%s,%s,%s,%s,%s,%s\n",
+                    escapeCsvValue(change.getRegdNo()),
+                    escapeCsvValue(change.getSemId()),
+                    escapeCsvValue(change.getSubjectCode()),
+                    escapeCsvValue(change.getExamSession()),
+                    change.getChange(),
+                    escapeCsvValue(change.getOldGrade()),
+                    escapeCsvValue(change.getNewGrade()),
+                    change.getCredits() != null ? change.getCredits() : "",
+                    change.getRecheck() != null ? change.getRecheck() : ""
+            ));
+        }
+
+        return csv.toString();
+    }
+
     private String escapeCsvValue(String value) {
         if (value == null) {
             return "";
@@ -0,0 +1,262 @@
+package com.result.bputresultextract.service;
+
+import com.result.bputresultextract.dto.CsvResultRow;
+import com.result.bputresultextract.dto.ResultQueryResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory store of previously extracted result rows.
+ * Every row gets a stable row id; each indexed column (regdNo, subjectCode, examSession, grade)
+ * maps a value to a bitmap of row ids, so a query is a handful of bitmap intersections
+ * and never goes back to BPUT.
+ * Slots of removed rows are reused, so memory is bounded by the number of distinct rows ever live at once;
+ * there is no cap on that number and nothing is persisted across restarts.
+ */
+@Service
+@Slf4j
+public class ResultStore {
+
+    private final List<CsvResultRow> rows = new ArrayList<>();
+    private final BitSet liveRows = new BitSet();
+    private final BitSet freeRows = new BitSet();
+    private final Map<String, Integer> rowIdByKey = new HashMap<>();
+
+    private final Map<String, BitSet> regdNoIndex = new HashMap<>();
+    private final Map<String, BitSet> subjectCodeIndex = new HashMap<>();
+    private final Map<String, BitSet> examSessionIndex = new HashMap<>();
+    private final Map<String, BitSet> gradeIndex = new HashMap<>();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Insert or replace rows. A row is identified by (regdNo, semId, subjectCode, examSession),
+     * so re-extracting a range overwrites the old grades instead of duplicating them.
+     */
+    public void addAll(Collection<CsvResultRow> results) {
+        if (results == null || results.isEmpty()) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            int inserted = 0;
+            int replaced = 0;
+
+            for (CsvResultRow row : results) {
+                String key = rowKey(row);
+                Integer rowId = rowIdByKey.get(key);
+
+                if (rowId == null) {
+                    rowId = freeRows.nextSetBit(0);
+                    if (rowId >= 0) {
+                        freeRows.clear(rowId);
+                        rows.set(rowId, row);
+                    } else {
+                        rowId = rows.size();
+                        rows.add(row);
+                    }
+                    rowIdByKey.put(key, rowId);
+                    liveRows.set(rowId);
+                    inserted++;
+                } else {
+                    unindex(rowId, rows.get(rowId));
+                    rows.set(rowId, row);
+                    replaced++;
+                }
+                index(rowId, row);
+            }
+
+            log.debug("Result store updated: {} inserted, {} replaced, {} total rows", inserted, replaced, liveRows.cardinality());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drop rows that no longer exist upstream. The freed slot is reused by the next inserted row.
+     */
+    public void removeAll(Collection<CsvResultRow> results) {
+        if (results == null || results.isEmpty()) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            int removed = 0;
+
+            for (CsvResultRow row : results) {
+                Integer rowId = rowIdByKey.remove(rowKey(row));
+                if (rowId != null) {
+                    unindex(rowId, rows.get(rowId));
+                    rows.set(rowId, null);
+                    liveRows.clear(rowId);
+                    freeRows.set(rowId);
+                    removed++;
+                }
+            }
+
+            log.debug("Result store updated: {} removed, {} total rows", removed, liveRows.cardinality());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Atomically replace one semester result (regdNo, semId, examSession) with the given rows and
+     * return the rows that were stored for it before. Rows missing from the new list are removed.
+     */
+    public List<CsvResultRow> replaceSemester(String regdNo, String semId, String examSession, List<CsvResultRow> currentRows) {
+        lock.writeLock().lock();
+        try {
+            List<CsvResultRow> previousRows = findSemester(regdNo, semId, examSession);
+
+            Set<String> currentKeys = new HashSet<>();
+            for (CsvResultRow row : currentRows) {
+                currentKeys.add(rowKey(row));
+            }
+            List<CsvResultRow> removedRows = new ArrayList<>();
+            for (CsvResultRow row : previousRows) {
+                if (!currentKeys.contains(rowKey(row))) {
+                    removedRows.add(row);
+                }
+            }
+
+            removeAll(removedRows);
+            addAll(currentRows);
+            return previousRows;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * All stored rows of one semester result, i.e. one (regdNo, semId, examSession).
+     */
+    public List<CsvResultRow> findSemester(String regdNo, String semId, String examSession) {
+        lock.readLock().lock();
+        try {
+            BitSet matches = (BitSet) liveRows.clone();
+            intersect(matches, regdNoIndex, regdNo);
+            intersect(matches, examSessionIndex, examSession);
+
+            List<CsvResultRow> semesterRows = new ArrayList<>();
+            for (int rowId = matches.nextSetBit(0); rowId >= 0; rowId = matches.nextSetBit(rowId + 1)) {
+                CsvResultRow row = rows.get(rowId);
+                if (Objects.equals(row.getSemId(), semId)) {
+                    semesterRows.add(row);
+                }
+            }
+            return semesterRows;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Filter rows by any combination of the indexed columns (null means "any") and return one page.
+     * Rows are returned in row id order, which is insertion order except where a new row took a removed row's slot.
+     */
+    public ResultQueryResponse query(String regdNo, String subjectCode, String examSession, String grade, int page, int size) {
+        lock.readLock().lock();
+        try {
+            BitSet matches = (BitSet) liveRows.clone();
+            intersect(matches, regdNoIndex, regdNo);
+            intersect(matches, subjectCodeIndex, subjectCode);
+            intersect(matches, examSessionIndex, examSession);
+            intersect(matches, gradeIndex, grade);
+
+            long totalElements = matches.cardinality();
+            long skip = (long) page * size;
+
+            List<CsvResultRow> content = new ArrayList<>((int) Math.min(size, Math.max(0, totalElements - skip)));
+            int rowId = matches.nextSetBit(0);
+            for (long i = 0; i < skip && rowId >= 0; i++) {
+                rowId = matches.nextSetBit(rowId + 1);
+            }
+            while (rowId >= 0 && content.size() < size) {
+                content.add(rows.get(rowId));
+                rowId = matches.nextSetBit(rowId + 1);
+            }
+
+            return ResultQueryResponse.builder()
+                    .page(page)
+                    .size(size)
+                    .totalElements(totalElements)
+                    .totalPages((int) ((totalElements + size - 1) / size))
+                    .content(content)
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveRows.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void index(int rowId, CsvResultRow row) {
+        addToIndex(regdNoIndex, row.getRegdNo(), rowId);
+        addToIndex(subjectCodeIndex, row.getSubjectCode(), rowId);
+        addToIndex(examSessionIndex, row.getExamSession(), rowId);
+        addToIndex(gradeIndex, row.getGrade(), rowId);
+    }
+
+    private void unindex(int rowId, CsvResultRow row) {
+        removeFromIndex(regdNoIndex, row.getRegdNo(), rowId);
+        removeFromIndex(subjectCodeIndex, row.getSubjectCode(), rowId);
+        removeFromIndex(examSessionIndex, row.getExamSession(), rowId);
+        removeFromIndex(gradeIndex, row.getGrade(), rowId);
+    }
+
+    private void addToIndex(Map<String, BitSet> index, String value, int rowId) {
+        if (value != null) {
+            index.computeIfAbsent(value, v -> new BitSet()).set(rowId);
+        }
+    }
+
+    private void removeFromIndex(Map<String, BitSet> index, String value, int rowId) {
+        if (value == null) {
+            return;
+        }
+        BitSet bits = index.get(value);
+        if (bits != null) {
+            bits.clear(rowId);
+            if (bits.isEmpty()) {
+                index.remove(value);
+            }
+        }
+    }
+
+    private void intersect(BitSet matches, Map<String, BitSet> index, String value) {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        BitSet bits = index.get(value);
+        if (bits == null) {
+            matches.clear();
+        } else {
+            matches.and(bits);
+        }
+    }
+
+    private String rowKey(CsvResultRow row) {
+        return row.getRegdNo() + "|" + row.getSemId() + "|" + row.getSubjectCode() + "|" + row.getExamSession();
+    }
+}
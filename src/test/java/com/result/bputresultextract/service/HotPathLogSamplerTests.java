@@ -0,0 +1,60 @@
+package com.result.bputresultextract.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HotPathLogSamplerTests {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private final AtomicLong now = new AtomicLong(42 * SECOND);
+
+    private int allowed(HotPathLogSampler sampler, int attempts) {
+        int allowed = 0;
+        for (int i = 0; i < attempts; i++) {
+            if (sampler.shouldLog()) {
+                allowed++;
+            }
+        }
+        return allowed;
+    }
+
+    @Test
+    void capsLinesPerSecond() {
+        HotPathLogSampler sampler = new HotPathLogSampler(true, 3, now::get);
+
+        assertThat(allowed(sampler, 10)).isEqualTo(3);
+
+        // Still the same second
+        now.addAndGet(SECOND - 1);
+        assertThat(sampler.shouldLog()).isFalse();
+    }
+
+    @Test
+    void rollsOverToTheNextSecond() {
+        HotPathLogSampler sampler = new HotPathLogSampler(true, 2, now::get);
+        assertThat(allowed(sampler, 5)).isEqualTo(2);
+
+        now.addAndGet(SECOND);
+        assertThat(allowed(sampler, 5)).isEqualTo(2);
+
+        now.addAndGet(5 * SECOND);
+        assertThat(allowed(sampler, 5)).isEqualTo(2);
+    }
+
+    @Test
+    void unsampledLogsEveryLine() {
+        HotPathLogSampler sampler = new HotPathLogSampler(false, 1, now::get);
+
+        assertThat(allowed(sampler, 100)).isEqualTo(100);
+    }
+
+    @Test
+    void nonPositiveMaxPerSecondLogsNothing() {
+        assertThat(allowed(new HotPathLogSampler(true, 0, now::get), 10)).isZero();
+        assertThat(allowed(new HotPathLogSampler(true, -1, now::get), 10)).isZero();
+    }
+}
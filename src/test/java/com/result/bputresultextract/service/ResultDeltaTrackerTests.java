@@ -0,0 +1,142 @@
+package com.result.bputresultextract.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.result.bputresultextract.dto.CsvResultRow;
+import com.result.bputresultextract.dto.GradeChange;
+import com.result.bputresultextract.dto.SubjectResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
+
+class ResultDeltaTrackerTests {
+
+    private static final String REGNO = "2101289370";
+    private static final String SEM_ID = "3";
+    private static final String SESSION = "Odd-(2022-23)";
+
+    private final ResultStore store = new ResultStore();
+    private final ResultDeltaTracker tracker = new ResultDeltaTracker(store, new ObjectMapper(), "");
+
+    private static SubjectResult subject(String code, String grade, Integer recheck) {
+        SubjectResult subject = new SubjectResult();
+        subject.setSemId(SEM_ID);
+        subject.setSubjectCODE(code);
+        subject.setSubjectCredits(3);
+        subject.setGrade(grade);
+        subject.setRecheck(recheck);
+        return subject;
+    }
+
+    private List<GradeChange> diff(SubjectResult... subjects) {
+        return tracker.diffSemester(REGNO, SEM_ID, SESSION, List.of(subjects));
+    }
+
+    @Test
+    void firstRunWithoutBaselineReportsEverythingAdded() {
+        List<GradeChange> changes = diff(subject("RCS3C001", "F", 0), subject("RCS3C002", "A", 0));
+
+        assertThat(changes)
+                .extracting(GradeChange::getSubjectCode, GradeChange::getChange, GradeChange::getNewGrade)
+                .containsExactlyInAnyOrder(
+                        tuple("RCS3C001", GradeChange.ChangeType.ADDED, "F"),
+                        tuple("RCS3C002", GradeChange.ChangeType.ADDED, "A"));
+        assertThat(store.findSemester(REGNO, SEM_ID, SESSION)).hasSize(2);
+    }
+
+    @Test
+    void sameSubjectsInDifferentOrderAreNotAChange() {
+        diff(subject("RCS3C001", "F", 0), subject("RCS3C002", "A", 0));
+
+        assertThat(diff(subject("RCS3C002", "A", 0), subject("RCS3C001", "F", 0))).isEmpty();
+    }
+
+    @Test
+    void unchangedHashSkipsTheDiff() {
+        diff(subject("RCS3C001", "F", 0));
+
+        // If the semester were diffed, the store would be rewritten
+        store.removeAll(store.findSemester(REGNO, SEM_ID, SESSION));
+
+        assertThat(diff(subject("RCS3C001", "F", 0))).isEmpty();
+        assertThat(store.size()).isZero();
+    }
+
+    @Test
+    void classifiesChangedAddedAndRemovedAndUpdatesStore() {
+        diff(subject("RCS3C001", "F", 0), subject("RCS3C002", "A", 0));
+
+        List<GradeChange> changes = diff(subject("RCS3C001", "C", 1), subject("RCS3C003", "B", 0));
+
+        assertThat(changes)
+                .extracting(GradeChange::getSubjectCode, GradeChange::getChange,
+                        GradeChange::getOldGrade, GradeChange::getNewGrade, GradeChange::getRecheck)
+                .containsExactlyInAnyOrder(
+                        tuple("RCS3C001", GradeChange.ChangeType.CHANGED, "F", "C", 1),
+                        tuple("RCS3C003", GradeChange.ChangeType.ADDED, null, "B", 0),
+                        tuple("RCS3C002", GradeChange.ChangeType.REMOVED, "A", null, null));
+        assertThat(store.findSemester(REGNO, SEM_ID, SESSION))
+                .extracting(CsvResultRow::getSubjectCode, CsvResultRow::getGrade)
+                .containsExactlyInAnyOrder(tuple("RCS3C001", "C"), tuple("RCS3C003", "B"));
+    }
+
+    @Test
+    void recheckFlagAloneIsDiffedButNotReported() {
+        diff(subject("RCS3C001", "F", 0));
+
+        assertThat(diff(subject("RCS3C001", "F", 1))).isEmpty();
+        assertThat(store.findSemester(REGNO, SEM_ID, SESSION)).hasSize(1);
+    }
+
+    @Test
+    void extractionWritingTheStoreDoesNotHideAChange() {
+        diff(subject("RCS3C001", "F", 0));
+
+        // A full /extract in between stores the new grade before delta mode sees it
+        store.addAll(List.of(CsvResultRow.builder()
+                .regdNo(REGNO)
+                .semId(SEM_ID)
+                .subjectCode("RCS3C001")
+                .credits(3)
+                .grade("C")
+                .examSession(SESSION)
+                .build()));
+
+        assertThat(diff(subject("RCS3C001", "C", 1)))
+                .extracting(GradeChange::getSubjectCode, GradeChange::getChange, GradeChange::getOldGrade, GradeChange::getNewGrade)
+                .containsExactly(tuple("RCS3C001", GradeChange.ChangeType.CHANGED, "F", "C"));
+    }
+
+    @Test
+    void baselineSurvivesARestart(@TempDir Path dir) {
+        String baselineFile = dir.resolve("delta-baseline.json").toString();
+        ResultDeltaTracker first = new ResultDeltaTracker(new ResultStore(), new ObjectMapper(), baselineFile);
+        first.loadBaseline();
+        first.diffSemester(REGNO, SEM_ID, SESSION, List.of(subject("RCS3C001", "F", 0)));
+        first.markTaskSeen(REGNO, SESSION);
+        first.saveBaseline();
+
+        ResultDeltaTracker restarted = new ResultDeltaTracker(new ResultStore(), new ObjectMapper(), baselineFile);
+        restarted.loadBaseline();
+
+        assertThat(restarted.hasSeenTask(REGNO, SESSION)).isTrue();
+        assertThat(restarted.hasSeenTask(REGNO, "Even-(2022-23)")).isFalse();
+        assertThat(restarted.diffSemester(REGNO, SEM_ID, SESSION, List.of(subject("RCS3C001", "F", 0)))).isEmpty();
+        assertThat(restarted.diffSemester(REGNO, SEM_ID, SESSION, List.of(subject("RCS3C001", "C", 1))))
+                .extracting(GradeChange::getChange, GradeChange::getOldGrade, GradeChange::getNewGrade)
+                .containsExactly(tuple(GradeChange.ChangeType.CHANGED, "F", "C"));
+    }
+
+    @Test
+    void missingBaselineFileStartsEmpty(@TempDir Path dir) {
+        ResultDeltaTracker fresh = new ResultDeltaTracker(new ResultStore(), new ObjectMapper(),
+                dir.resolve("missing.json").toString());
+        fresh.loadBaseline();
+
+        assertThat(fresh.hasSeenTask(REGNO, SESSION)).isFalse();
+    }
+}
@@ -0,0 +1,98 @@
+package com.result.bputresultextract.service;
+
+import com.result.bputresultextract.dto.CsvResultRow;
+import com.result.bputresultextract.dto.ResultQueryResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResultStoreTests {
+
+    private final ResultStore store = new ResultStore();
+
+    private static CsvResultRow row(String regdNo, String subjectCode, String grade) {
+        return CsvResultRow.builder()
+                .regdNo(regdNo)
+                .semId("3")
+                .subjectCode(subjectCode)
+                .credits(3)
+                .grade(grade)
+                .examSession("Odd-(2022-23)")
+                .build();
+    }
+
+    @Test
+    void filtersByAllIndexedColumns() {
+        store.addAll(List.of(
+                row("2101289370", "RCS3C001", "A"),
+                row("2101289371", "RCS3C001", "F"),
+                row("2101289372", "RCS3C002", "F")));
+
+        ResultQueryResponse response = store.query(null, "RCS3C001", "Odd-(2022-23)", "F", 0, 10);
+
+        assertThat(response.getTotalElements()).isEqualTo(1);
+        assertThat(response.getContent()).extracting(CsvResultRow::getRegdNo).containsExactly("2101289371");
+    }
+
+    @Test
+    void unknownFilterValueMatchesNothing() {
+        store.addAll(List.of(row("2101289370", "RCS3C001", "A")));
+
+        assertThat(store.query(null, null, null, "O", 0, 10).getTotalElements()).isZero();
+    }
+
+    @Test
+    void replacedRowIsReindexedUnderNewGrade() {
+        store.addAll(List.of(row("2101289370", "RCS3C001", "F")));
+        store.addAll(List.of(row("2101289370", "RCS3C001", "C")));
+
+        assertThat(store.size()).isEqualTo(1);
+        assertThat(store.query(null, null, null, "F", 0, 10).getTotalElements()).isZero();
+        assertThat(store.query(null, null, null, "C", 0, 10).getContent())
+                .extracting(CsvResultRow::getGrade)
+                .containsExactly("C");
+    }
+
+    @Test
+    void removedRowsAreExcludedAndTheirSlotIsReused() {
+        CsvResultRow first = row("2101289370", "RCS3C001", "F");
+        CsvResultRow second = row("2101289371", "RCS3C001", "F");
+        store.addAll(List.of(first, second));
+
+        store.removeAll(List.of(first));
+
+        assertThat(store.size()).isEqualTo(1);
+        assertThat(store.query(null, null, null, "F", 0, 10).getContent())
+                .extracting(CsvResultRow::getRegdNo)
+                .containsExactly("2101289371");
+        assertThat(store.findSemester("2101289370", "3", "Odd-(2022-23)")).isEmpty();
+
+        store.addAll(List.of(row("2101289372", "RCS3C001", "F")));
+
+        // The new row takes the freed slot, so it sorts before the surviving row
+        assertThat(store.query(null, null, null, "F", 0, 10).getContent())
+                .extracting(CsvResultRow::getRegdNo)
+                .containsExactly("2101289372", "2101289371");
+    }
+
+    @Test
+    void lastPageIsPartial() {
+        List<CsvResultRow> rows = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            rows.add(row(String.valueOf(2101289370L + i), "RCS3C001", "A"));
+        }
+        store.addAll(rows);
+
+        ResultQueryResponse lastPage = store.query(null, "RCS3C001", null, null, 2, 10);
+
+        assertThat(lastPage.getTotalElements()).isEqualTo(25);
+        assertThat(lastPage.getTotalPages()).isEqualTo(3);
+        assertThat(lastPage.getContent())
+                .extracting(CsvResultRow::getRegdNo)
+                .containsExactly("2101289390", "2101289391", "2101289392", "2101289393", "2101289394");
+        assertThat(store.query(null, "RCS3C001", null, null, 3, 10).getContent()).isEmpty();
+    }
+}